@@ -0,0 +1,284 @@
+package io.opensource.slok.mask.json;
+
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchMasker
+ * Masks every file under an input directory that matches a glob into the same
+ * relative location under an output directory, using a fixed pool of workers.
+ * Files are streamed, never loaded whole. A manifest in the output directory
+ * records each input's size, mtime and the config hash, so unchanged files are
+ * skipped on the next run.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+public class BatchMasker {
+
+  static final String MANIFEST_FILE = ".json-masker-manifest";
+
+  private final Map<FieldMatcher, FieldMaskingRule> rules;
+  private final String configHash;
+  private final JsonMasker masker;
+  private final int workers;
+  private final boolean force;
+
+  /**
+   * @param configJson  Config JSON defining matchers and strategies
+   * @param workers     number of files masked in parallel
+   * @param prettyPrint true for indented output, false for compact output
+   * @param force       mask every file even when the manifest says it is unchanged
+   */
+  public BatchMasker(String configJson, int workers, boolean prettyPrint, boolean force) throws Exception {
+    this(configJson, workers, prettyPrint, force, 0);
+  }
+
+  /**
+   * @param embeddedJsonDepth levels of JSON embedded in string values to unwrap and mask,
+   *                          see {@link JsonMasker#JsonMasker(MaskingCache, boolean, int)}
+   */
+  public BatchMasker(String configJson, int workers, boolean prettyPrint, boolean force,
+      int embeddedJsonDepth) throws Exception {
+    if (workers < 1) {
+      throw new IllegalArgumentException("workers must be at least 1: " + workers);
+    }
+    this.rules = ConfigParser.parseConfig(configJson);
+    this.configHash = Long.toHexString(MaskingCache.hash(configJson)) + (prettyPrint ? "p" : "c")
+        + embeddedJsonDepth;
+    this.masker = new JsonMasker(null, prettyPrint, embeddedJsonDepth);
+    this.workers = workers;
+    this.force = force;
+  }
+
+  /**
+   * Masks all regular files under inputDir whose relative path matches the glob.
+   */
+  public Summary run(Path inputDir, Path outputDir, String glob) throws Exception {
+    if (!Files.isDirectory(inputDir)) {
+      throw new IllegalArgumentException("Input directory not found: " + inputDir);
+    }
+    if (outputDir.toAbsolutePath().normalize().startsWith(inputDir.toAbsolutePath().normalize())) {
+      throw new IllegalArgumentException("Output directory must not be inside the input directory: " + outputDir);
+    }
+    Files.createDirectories(outputDir);
+
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    List<Path> inputs;
+    try (Stream<Path> paths = Files.walk(inputDir)) {
+      inputs = paths.filter(Files::isRegularFile)
+          .filter(p -> matcher.matches(inputDir.relativize(p)))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    Properties previous = loadManifest(outputDir);
+    // Entries of files outside this run's glob are kept as they were
+    Properties manifest = new Properties();
+    manifest.putAll(previous);
+    long[] hitsBefore = ruleHits();
+    long start = System.nanoTime();
+
+    List<Future<FileResult>> futures = new ArrayList<>(inputs.size());
+    ExecutorService pool = Executors.newFixedThreadPool(workers);
+    try {
+      for (Path input : inputs) {
+        futures.add(pool.submit(() -> maskFile(inputDir, outputDir, input, previous)));
+      }
+
+      Summary summary = new Summary();
+      for (Future<FileResult> future : futures) {
+        FileResult result = future.get();
+        summary.add(result);
+        if (result.error == null) {
+          manifest.setProperty(result.relativePath, result.fingerprint);
+        } else {
+          manifest.remove(result.relativePath);
+        }
+      }
+      summary.elapsedNanos = System.nanoTime() - start;
+
+      long[] hitsAfter = ruleHits();
+      int i = 0;
+      for (FieldMatcher fieldMatcher : rules.keySet()) {
+        summary.ruleHits.put(fieldMatcher.toString(), hitsAfter[i] - hitsBefore[i]);
+        i++;
+      }
+
+      storeManifest(outputDir, manifest);
+      return summary;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private FileResult maskFile(Path inputDir, Path outputDir, Path input, Properties previous) {
+    String relativePath = inputDir.relativize(input).toString().replace('\\', '/');
+    Path output = outputDir.resolve(relativePath);
+    FileResult result = new FileResult(relativePath);
+
+    try {
+      long size = Files.size(input);
+      result.fingerprint = size + ":" + Files.getLastModifiedTime(input).toMillis() + ":" + configHash;
+      result.inputBytes = size;
+
+      if (!force && Files.exists(output) && result.fingerprint.equals(previous.getProperty(relativePath))) {
+        result.skipped = true;
+        return result;
+      }
+
+      Files.createDirectories(output.getParent());
+      Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+      try (InputStream in = Files.newInputStream(input);
+          OutputStream out = Files.newOutputStream(tmp)) {
+        masker.maskJson(in, out, rules);
+      } catch (Exception e) {
+        Files.deleteIfExists(tmp);
+        throw e;
+      }
+      Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      result.outputBytes = Files.size(output);
+    } catch (Exception e) {
+      // Jackson messages carry the location on a second line
+      String message = String.valueOf(e.getMessage()).split("\\R", 2)[0];
+      result.error = e.getClass().getSimpleName() + ": " + message;
+    }
+    return result;
+  }
+
+  private long[] ruleHits() {
+    return rules.values().stream().mapToLong(FieldMaskingRule::getHitCount).toArray();
+  }
+
+  private static Properties loadManifest(Path outputDir) throws IOException {
+    Properties manifest = new Properties();
+    Path file = outputDir.resolve(MANIFEST_FILE);
+    if (Files.exists(file)) {
+      try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        manifest.load(reader);
+      }
+    }
+    return manifest;
+  }
+
+  private static void storeManifest(Path outputDir, Properties manifest) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(outputDir.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+      manifest.store(writer, "json-masker batch manifest: size:mtime:config");
+    }
+  }
+
+  private static final class FileResult {
+    private final String relativePath;
+    private String fingerprint;
+    private long inputBytes;
+    private long outputBytes;
+    private boolean skipped;
+    private String error;
+
+    FileResult(String relativePath) {
+      this.relativePath = relativePath;
+    }
+  }
+
+  /**
+   * Totals of one batch run.
+   */
+  public static class Summary {
+    private int masked;
+    private int skipped;
+    private long inputBytes;
+    private long outputBytes;
+    private long elapsedNanos;
+    private final Map<String, Long> ruleHits = new LinkedHashMap<>();
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    private void add(FileResult result) {
+      if (result.error != null) {
+        failures.put(result.relativePath, result.error);
+      } else if (result.skipped) {
+        skipped++;
+      } else {
+        masked++;
+        inputBytes += result.inputBytes;
+        outputBytes += result.outputBytes;
+      }
+    }
+
+    public int getMasked() {
+      return masked;
+    }
+
+    public int getSkipped() {
+      return skipped;
+    }
+
+    public long getInputBytes() {
+      return inputBytes;
+    }
+
+    public long getOutputBytes() {
+      return outputBytes;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Masked input megabytes per second of wall-clock time.
+     */
+    public double getMegabytesPerSecond() {
+      return elapsedNanos == 0 ? 0 : (inputBytes / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Values masked per rule during this run, keyed by the rule's matcher.
+     */
+    public Map<String, Long> getRuleHits() {
+      return ruleHits;
+    }
+
+    /**
+     * Error message per failed file, keyed by the path relative to the input directory.
+     */
+    public Map<String, String> getFailures() {
+      return failures;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("Files: %d masked, %d unchanged, %d failed%n", masked, skipped, failures.size()));
+      sb.append(String.format("Bytes: %d in, %d out%n", inputBytes, outputBytes));
+      sb.append(String.format("Time:  %.1f ms, %.2f MB/s%n", elapsedNanos / 1e6, getMegabytesPerSecond()));
+      sb.append(String.format("Rule hits:%n"));
+      ruleHits.forEach((rule, hits) -> sb.append(String.format("  %8d  %s%n", hits, rule)));
+      if (!failures.isEmpty()) {
+        sb.append(String.format("Failures:%n"));
+        failures.forEach((file, error) -> sb.append(String.format("  %s: %s%n", file, error)));
+      }
+      return sb.toString();
+    }
+  }
+}
@@ -9,6 +9,7 @@ import io.opensource.slok.mask.json.strategy.MaskingStrategy;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 
@@ -56,19 +57,38 @@ public class ConfigParser {
       String matchValue = match.get("value").asText();
       FieldMatcher matcher = loadMatcher(matchType, matchValue);
 
-      // Strategy - Dynamic loading
+      // Action - mask (default), redact or drop
+      FieldMaskingRule.Action action = parseAction(rule.path("action").asText("mask"));
+      String placeholder = rule.path("placeholder").asText(FieldMaskingRule.DEFAULT_PLACEHOLDER);
+      boolean maskScalars = rule.path("maskScalars").asBoolean(false);
+
+      // Strategy - Dynamic loading, optional for redact and drop
       JsonNode strat = rule.get("strategy");
-      String stratType = strat.get("type").asText();
-      String maskChar = strat.get("maskChar").asText("*");
-      MaskingStrategy strategy = loadStrategy(stratType, strat);
+      MaskingStrategy strategy = null;
+      String maskChar = "*";
+      if (strat != null) {
+        String stratType = strat.get("type").asText();
+        maskChar = strat.path("maskChar").asText("*");
+        strategy = loadStrategy(stratType, strat);
+      } else if (action == FieldMaskingRule.Action.MASK) {
+        throw new IllegalArgumentException("Strategy required for mask rule: " + matchValue);
+      }
 
-      FieldMaskingRule maskingRule = new FieldMaskingRule(strategy, maskChar);
+      FieldMaskingRule maskingRule = new FieldMaskingRule(strategy, maskChar, action, placeholder, maskScalars);
       map.put(matcher, maskingRule);
     }
 
     return map;
   }
 
+  private static FieldMaskingRule.Action parseAction(String action) {
+    try {
+      return FieldMaskingRule.Action.valueOf(action.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Action not found: " + action, e);
+    }
+  }
+
   private static FieldMatcher loadMatcher(String matchType, String matchValue) throws Exception {
     String className = matcherMappings.getProperty(matchType.toLowerCase());
     
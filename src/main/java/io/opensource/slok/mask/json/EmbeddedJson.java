@@ -0,0 +1,133 @@
+package io.opensource.slok.mask.json;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * EmbeddedJson
+ * Cheap scans used to decide whether text may carry JSON before any parser is
+ * created: whole-document candidates start with '{' or '[', fragments inside
+ * plain text start with '{'. Ordinary strings fail the scan without allocating.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+final class EmbeddedJson {
+
+  // Fragments that fail to parse may cost at most this many times the text's length:
+  // falling back to the objects inside a failed one parses the same characters again.
+  // Past the budget only the innermost objects are parsed
+  static final int MAX_REPARSE_FACTOR = 4;
+
+  private EmbeddedJson() {
+  }
+
+  /**
+   * True when the characters could hold a JSON document or a JSON object fragment.
+   */
+  static boolean mayContainJson(char[] text, int offset, int length) {
+    int end = offset + length;
+    int i = offset;
+    while (i < end && Character.isWhitespace(text[i])) {
+      i++;
+    }
+    if (i < end && text[i] == '[') {
+      return true;
+    }
+    for (; i < end; i++) {
+      if (text[i] == '{') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean mayContainJson(String text) {
+    return text.indexOf('{') >= 0 || startsLikeDocument(text);
+  }
+
+  /**
+   * True when the first non-whitespace character opens an object or array.
+   */
+  static boolean startsLikeDocument(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        return c == '{' || c == '[';
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds the outermost balanced objects in one pass, skipping over quoted strings
+   * inside them. Each keeps the balanced objects directly inside it, to fall back on
+   * when it does not parse itself, e.g. {@code {level=INFO, body={...}}}. Brackets that
+   * never close or close with the wrong type are dropped and their objects kept.
+   */
+  static List<Fragment> findFragments(String text) {
+    List<Fragment> found = new ArrayList<>();
+    Deque<Fragment> open = new ArrayDeque<>();
+    boolean inString = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (open.isEmpty()) {
+        if (c == '{') {
+          open.push(new Fragment(c, i));
+        }
+      } else if (inString) {
+        if (c == '\\') {
+          i++;
+        } else if (c == '"') {
+          inString = false;
+        }
+      } else if (c == '"') {
+        inString = true;
+      } else if (c == '{' || c == '[') {
+        open.push(new Fragment(c, i));
+      } else if (c == '}' || c == ']') {
+        Fragment level = open.pop();
+        List<Fragment> parent = open.isEmpty() ? found : open.peek().children();
+        if (level.opener == '{' && c == '}') {
+          level.end = i + 1;
+          parent.add(level);
+        } else if (level.children != null) {
+          parent.addAll(level.children);
+        }
+      }
+    }
+    // Never closed, outermost first
+    while (!open.isEmpty()) {
+      Fragment level = open.pollLast();
+      if (level.children != null) {
+        found.addAll(level.children);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * A balanced object spanning [start, end) and the balanced objects directly inside it.
+   */
+  static final class Fragment {
+    private final char opener;
+    final int start;
+    int end;
+    List<Fragment> children;
+
+    private Fragment(char opener, int start) {
+      this.opener = opener;
+      this.start = start;
+    }
+
+    private List<Fragment> children() {
+      if (children == null) {
+        children = new ArrayList<>();
+      }
+      return children;
+    }
+  }
+}
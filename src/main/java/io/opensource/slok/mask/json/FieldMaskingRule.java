@@ -2,6 +2,7 @@ package io.opensource.slok.mask.json;
 
 
 import io.opensource.slok.mask.json.strategy.MaskingStrategy;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * FieldMaskingRule
@@ -12,15 +13,77 @@ import io.opensource.slok.mask.json.strategy.MaskingStrategy;
  */
 
 public class FieldMaskingRule {
+
+  /**
+   * What happens to the value of a matched field.
+   */
+  public enum Action {
+    /** Mask string values with the strategy, recurse into objects and arrays. */
+    MASK,
+    /** Replace the whole value, including objects and arrays, with the placeholder. */
+    REDACT,
+    /** Remove the field. */
+    DROP
+  }
+
+  public static final String DEFAULT_PLACEHOLDER = "[REDACTED]";
+
   private final MaskingStrategy strategy;
   private final String maskChar;
+  private final Action action;
+  private final String placeholder;
+  private final boolean maskScalars;
+  private final LongAdder hits = new LongAdder();
 
   public FieldMaskingRule(MaskingStrategy strategy, String maskChar) {
+    this(strategy, maskChar, Action.MASK, DEFAULT_PLACEHOLDER, false);
+  }
+
+  /**
+   * @param strategy    masking strategy, only used by {@link Action#MASK}
+   * @param maskChar    mask string passed to the strategy
+   * @param action      what to do with the matched value
+   * @param placeholder replacement value for {@link Action#REDACT}
+   * @param maskScalars for {@link Action#MASK}, also mask numbers and booleans
+   *                    (their text is masked and written as a string)
+   */
+  public FieldMaskingRule(MaskingStrategy strategy, String maskChar, Action action,
+      String placeholder, boolean maskScalars) {
     this.strategy = strategy;
     this.maskChar = maskChar;
+    this.action = action;
+    this.placeholder = placeholder;
+    this.maskScalars = maskScalars;
   }
 
   public String apply(String input) {
+    hits.increment();
     return strategy.mask(input, maskChar);
   }
+
+  public Action getAction() {
+    return action;
+  }
+
+  public String getPlaceholder() {
+    return placeholder;
+  }
+
+  public boolean isMaskScalars() {
+    return maskScalars;
+  }
+
+  /**
+   * Counts a value that was redacted or dropped rather than masked.
+   */
+  void recordHit() {
+    hits.increment();
+  }
+
+  /**
+   * Number of values this rule has masked, redacted or dropped since it was created.
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
 }
@@ -1,15 +1,63 @@
 package io.opensource.slok.mask.json;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.opensource.slok.mask.json.matcher.FieldMatcher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import org.apache.commons.io.output.StringBuilderWriter;
 
 public class JsonMasker {
 
-  private final ObjectMapper mapper = new ObjectMapper();
+  private final MaskingCache cache;
+  private final boolean prettyPrint;
+  private final int embeddedJsonDepth;
+
+  public JsonMasker() {
+    this(null);
+  }
+
+  /**
+   * @param cache optional memo of masked payloads; hits require the same rule set
+   *              instance, so parse the config once and reuse the returned map
+   */
+  public JsonMasker(MaskingCache cache) {
+    this(cache, true);
+  }
+
+  /**
+   * @param cache       optional memo of masked payloads, see {@link #JsonMasker(MaskingCache)}
+   * @param prettyPrint true for indented output, false for compact single-line output
+   */
+  public JsonMasker(MaskingCache cache, boolean prettyPrint) {
+    this(cache, prettyPrint, 0);
+  }
+
+  /**
+   * @param cache             optional memo of masked payloads, see {@link #JsonMasker(MaskingCache)};
+   *                          maskers configured differently may share one cache
+   * @param prettyPrint       true for indented output, false for compact single-line output
+   * @param embeddedJsonDepth how many levels of JSON embedded in string values to unwrap
+   *                          and mask; 0 treats every string as opaque text
+   */
+  public JsonMasker(MaskingCache cache, boolean prettyPrint, int embeddedJsonDepth) {
+    if (embeddedJsonDepth < 0) {
+      throw new IllegalArgumentException("embeddedJsonDepth must not be negative: " + embeddedJsonDepth);
+    }
+    this.cache = cache;
+    this.prettyPrint = prettyPrint;
+    this.embeddedJsonDepth = embeddedJsonDepth;
+  }
 
   /**
    * Recursively masks fields in a JsonNode structure.
@@ -19,7 +67,7 @@ public class JsonMasker {
    * @return                  The modified JSON node with fields masked
    */
   private JsonNode maskFields(JsonNode root,
-      Map<FieldMatcher, FieldMaskingRule> matcherStrategyMap) {
+      Map<FieldMatcher, FieldMaskingRule> matcherStrategyMap, int embeddedDepth) {
 
     if (root == null || root.isNull()) return root;
 
@@ -32,41 +80,354 @@ public class JsonMasker {
         String fieldName = entry.getKey();
         JsonNode value = entry.getValue();
 
-        if (value.isTextual()) {
-          for (Map.Entry<FieldMatcher, FieldMaskingRule> ruleEntry : matcherStrategyMap.entrySet()) {
-            FieldMatcher matcher = ruleEntry.getKey();
-            if (matcher.matches(fieldName)) {
-              FieldMaskingRule rule = ruleEntry.getValue();
-              objectNode.put(fieldName, rule.apply(value.asText()));
-              break; // stop at first match
+        FieldMaskingRule rule = findRule(fieldName, matcherStrategyMap);
+        if (rule == null) {
+          if (value.isTextual() && embeddedDepth > 0) {
+            String text = value.asText();
+            if (EmbeddedJson.mayContainJson(text)) {
+              String masked = maskEmbedded(text, matcherStrategyMap, context(), embeddedDepth);
+              if (masked != text) {
+                objectNode.put(fieldName, masked);
+              }
             }
+          } else {
+            maskFields(value, matcherStrategyMap, embeddedDepth);
           }
-        } else {
-          maskFields(value, matcherStrategyMap);
+          continue;
+        }
+
+        switch (rule.getAction()) {
+          case DROP:
+            fields.remove();
+            rule.recordHit();
+            break;
+          case REDACT:
+            if (!value.isNull()) {
+              objectNode.put(fieldName, rule.getPlaceholder());
+              rule.recordHit();
+            }
+            break;
+          default:
+            if (value.isTextual() || (rule.isMaskScalars() && value.isBoolean())) {
+              objectNode.put(fieldName, rule.apply(value.asText()));
+            } else if (rule.isMaskScalars() && value.isNumber()) {
+              objectNode.put(fieldName, rule.apply(value.numberValue().toString()));
+            } else {
+              maskFields(value, matcherStrategyMap, embeddedDepth);
+            }
         }
       }
 
     } else if (root.isArray()) {
-      for (JsonNode item : root) {
-        maskFields(item, matcherStrategyMap);
+      ArrayNode arrayNode = (ArrayNode) root;
+      for (int i = 0; i < arrayNode.size(); i++) {
+        JsonNode item = arrayNode.get(i);
+        if (item.isTextual() && embeddedDepth > 0) {
+          String text = item.asText();
+          if (EmbeddedJson.mayContainJson(text)) {
+            String masked = maskEmbedded(text, matcherStrategyMap, context(), embeddedDepth);
+            if (masked != text) {
+              arrayNode.set(i, masked);
+            }
+          }
+        } else {
+          maskFields(item, matcherStrategyMap, embeddedDepth);
+        }
       }
     }
 
     return root;
   }
 
+  /**
+   * Returns the rule of the first matcher accepting the field name, or null.
+   */
+  static FieldMaskingRule findRule(String fieldName,
+      Map<FieldMatcher, FieldMaskingRule> matcherStrategyMap) {
+    for (Map.Entry<FieldMatcher, FieldMaskingRule> ruleEntry : matcherStrategyMap.entrySet()) {
+      if (ruleEntry.getKey().matches(fieldName)) {
+        return ruleEntry.getValue(); // stop at first match
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Streams tokens from parser to generator, applying the rule of each matched field.
+   * Redacted and dropped values are skipped with {@code skipChildren}, so their
+   * subtrees are never materialized. Only direct object members are masked,
+   * the same as {@link #maskFields}.
+   *
+   * @return true when any rule was applied, here or in embedded JSON
+   */
+  private boolean copyMasked(JsonParser parser, JsonGenerator generator,
+      Map<FieldMatcher, FieldMaskingRule> matcherStrategyMap, MaskingContext context,
+      int embeddedDepth) throws IOException {
+    boolean edited = false;
+    JsonToken token;
+    while ((token = parser.nextToken()) != null) {
+      if (token == JsonToken.VALUE_STRING && embeddedDepth > 0
+          && EmbeddedJson.mayContainJson(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+        String text = parser.getText();
+        String masked = maskEmbedded(text, matcherStrategyMap, context, embeddedDepth);
+        edited |= masked != text;
+        generator.writeString(masked);
+        continue;
+      }
+      if (token != JsonToken.FIELD_NAME) {
+        generator.copyCurrentEvent(parser);
+        continue;
+      }
+
+      FieldMaskingRule rule = context.ruleFor(parser.currentName(), matcherStrategyMap);
+      if (rule == null) {
+        generator.copyCurrentEvent(parser);
+        continue;
+      }
+
+      if (rule.getAction() == FieldMaskingRule.Action.DROP) {
+        parser.nextToken();
+        parser.skipChildren();
+        rule.recordHit();
+        edited = true;
+        continue;
+      }
+
+      generator.copyCurrentEvent(parser);
+      JsonToken value = parser.nextToken();
+
+      if (rule.getAction() == FieldMaskingRule.Action.REDACT && value != JsonToken.VALUE_NULL) {
+        generator.writeString(rule.getPlaceholder());
+        parser.skipChildren();
+        rule.recordHit();
+        edited = true;
+      } else if (value == JsonToken.VALUE_STRING
+          || (rule.isMaskScalars() && value.isBoolean())) {
+        generator.writeString(rule.apply(parser.getText()));
+        edited = true;
+      } else if (rule.isMaskScalars() && value.isNumeric()) {
+        // the parsed value, not the raw token, so 1.50 masks like the tree engine's 1.5
+        generator.writeString(rule.apply(parser.getNumberValue().toString()));
+        edited = true;
+      } else {
+        // objects and arrays are opened here and walked by the outer loop
+        generator.copyCurrentEvent(parser);
+      }
+    }
+    return edited;
+  }
+
+  /**
+   * Masks JSON held in a string value: the whole value when it parses as a document,
+   * otherwise every object fragment inside the text. Returns the same instance when
+   * nothing was masked.
+   */
+  private String maskEmbedded(String text, Map<FieldMatcher, FieldMaskingRule> matcherStrategyMap,
+      MaskingContext context, int embeddedDepth) {
+    char[] chars = null;
+    if (EmbeddedJson.startsLikeDocument(text)) {
+      chars = text.toCharArray();
+      String masked = maskDocument(text, chars, 0, chars.length, matcherStrategyMap, context, embeddedDepth - 1);
+      if (masked != null) {
+        return masked;
+      }
+    }
+
+    List<EmbeddedJson.Fragment> fragments = EmbeddedJson.findFragments(text);
+    if (fragments.isEmpty()) {
+      return text;
+    }
+    if (chars == null) {
+      chars = text.toCharArray();
+    }
+
+    StringBuilder result = null;
+    int copied = 0;
+    long reparseBudget = (long) EmbeddedJson.MAX_REPARSE_FACTOR * chars.length;
+    Deque<EmbeddedJson.Fragment> pending = new ArrayDeque<>(fragments);
+    while (!pending.isEmpty()) {
+      EmbeddedJson.Fragment fragment = pending.poll();
+      if (reparseBudget < 0 && fragment.children != null) {
+        // Out of budget: skip enclosing fragments and mask only the innermost ones,
+        // which do not overlap, so nothing parseable is left unmasked
+        pushChildren(pending, fragment);
+        continue;
+      }
+      String masked = maskDocument(text, chars, fragment.start, fragment.end,
+          matcherStrategyMap, context, embeddedDepth - 1);
+      if (masked == null) {
+        // not JSON itself: try the objects inside it, in place of it
+        reparseBudget -= fragment.end - fragment.start;
+        if (fragment.children != null) {
+          pushChildren(pending, fragment);
+        }
+        continue;
+      }
+      if (masked == text) {
+        continue;
+      }
+      if (result == null) {
+        result = new StringBuilder(text.length());
+      }
+      result.append(text, copied, fragment.start).append(masked);
+      copied = fragment.end;
+    }
+
+    if (result == null) {
+      return text;
+    }
+    return result.append(text, copied, text.length()).toString();
+  }
+
+  private static void pushChildren(Deque<EmbeddedJson.Fragment> pending, EmbeddedJson.Fragment fragment) {
+    for (int i = fragment.children.size() - 1; i >= 0; i--) {
+      pending.push(fragment.children.get(i));
+    }
+  }
+
+  /**
+   * Masks the document in chars[start, end) into compact JSON. Returns null when it does
+   * not parse, and text itself when no rule applied, so unmatched documents keep their
+   * formatting.
+   */
+  private String maskDocument(String text, char[] chars, int start, int end,
+      Map<FieldMatcher, FieldMaskingRule> matcherStrategyMap, MaskingContext context, int embeddedDepth) {
+    // Own buffer: the context's text buffer may hold the enclosing document
+    StringBuilderWriter out = new StringBuilderWriter(end - start);
+    boolean edited;
+    try (JsonParser parser = context.createParser(chars, start, end - start);
+        JsonGenerator generator = MaskingContext.FACTORY.createGenerator(out)) {
+      edited = copyMasked(parser, generator, matcherStrategyMap, context, embeddedDepth);
+    } catch (IOException e) {
+      return null;
+    }
+    return edited ? out.toString() : text;
+  }
+
+  /**
+   * Masks JSON fragments inside a plain-text line, e.g. a log line carrying a request body.
+   * Text outside the fragments is kept as is; fragments are written back as compact JSON.
+   * Unwraps at least one level even when the masker was built without embedded JSON support.
+   *
+   * @param text              Plain text possibly containing JSON objects
+   * @param fieldStrategyMap  Map of field matchers → masking rules
+   * @return                  The text with every parseable fragment masked
+   */
+  public String maskText(String text, Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap) {
+    if (!EmbeddedJson.mayContainJson(text)) {
+      return text;
+    }
+    MaskingContext context = context();
+    try {
+      return maskEmbedded(text, fieldStrategyMap, context, Math.max(1, embeddedJsonDepth));
+    } finally {
+      context.releaseRules();
+    }
+  }
+
+  private MaskingContext context() {
+    return MaskingContext.forThread(prettyPrint);
+  }
+
+  public int getEmbeddedJsonDepth() {
+    return embeddedJsonDepth;
+  }
+
+  /**
+   * Masks a parsed JSON tree in place.
+   *
+   * @param root              JSON tree (can be object or array)
+   * @param fieldStrategyMap  Map of field matchers → masking rules
+   * @return                  The same node, with fields masked
+   */
+  public JsonNode maskNode(JsonNode root,
+      Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap) {
+    try {
+      return maskFields(root, fieldStrategyMap, embeddedJsonDepth);
+    } finally {
+      context().releaseRules();
+    }
+  }
+
   /**
    * Masks a raw JSON payload using a field strategy map.
    */
   public String maskJson(String jsonInput,
       Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap) throws Exception {
-    JsonNode root = mapper.readTree(jsonInput);
-    JsonNode masked = maskFields(root, fieldStrategyMap);
-    return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(masked);
+    if (cache == null) {
+      return maskJson(jsonInput, fieldStrategyMap, context());
+    }
+
+    // Output differs by layout and embedded depth, so both are part of the key
+    int variant = (embeddedJsonDepth << 1) | (prettyPrint ? 1 : 0);
+    long inputHash = MaskingCache.hash(jsonInput);
+    String cached = cache.get(fieldStrategyMap, variant, jsonInput, inputHash);
+    if (cached != null) {
+      return cached;
+    }
+
+    String output = maskJson(jsonInput, fieldStrategyMap, context());
+
+    cache.put(fieldStrategyMap, variant, jsonInput, inputHash, output);
+    return output;
+  }
+
+  /**
+   * Masks a raw JSON payload using caller-owned working state. The cache is not consulted.
+   *
+   * @param jsonInput         The raw payload JSON string
+   * @param fieldStrategyMap  Map of field matchers → masking rules
+   * @param context           Context to reuse; must not be used by two threads at once
+   * @return                  Masked JSON, pretty or compact as configured on the context
+   */
+  public String maskJson(String jsonInput,
+      Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap, MaskingContext context) throws Exception {
+    try (JsonParser parser = context.createParser(jsonInput);
+        JsonGenerator generator = context.textGenerator()) {
+      copyMasked(parser, generator, fieldStrategyMap, context, embeddedJsonDepth);
+    } finally {
+      context.releaseRules();
+    }
+    return context.takeText();
+  }
+
+  /**
+   * Masks a UTF-8 encoded JSON payload into UTF-8 bytes. The cache is not consulted.
+   */
+  public byte[] maskJson(byte[] jsonInput,
+      Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap) throws Exception {
+    MaskingContext context = context();
+    try (JsonParser parser = context.createParser(jsonInput);
+        JsonGenerator generator = context.byteGenerator()) {
+      copyMasked(parser, generator, fieldStrategyMap, context, embeddedJsonDepth);
+    } finally {
+      context.releaseRules();
+    }
+    return context.takeBytes();
+  }
+
+  /**
+   * Masks a UTF-8 JSON stream into another without holding the whole document in memory.
+   * The cache is not consulted, and neither stream is closed.
+   */
+  public void maskJson(InputStream jsonInput, OutputStream jsonOutput,
+      Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap) throws Exception {
+    MaskingContext context = context();
+    try (JsonParser parser = context.createParser(jsonInput);
+        JsonGenerator generator = context.streamGenerator(jsonOutput)) {
+      copyMasked(parser, generator, fieldStrategyMap, context, embeddedJsonDepth);
+    } finally {
+      context.releaseRules();
+    }
+  }
+
+  public MaskingCache getCache() {
+    return cache;
   }
 
   /**
-   * Masks a raw JSON payload using config JSON string.
+   * Masks a raw JSON payload using config JSON string. The config is parsed into a
+   * new rule set on every call, so the cache is not consulted.
    *
    * @param jsonInput   The raw payload JSON string
    * @param configJson  Config JSON defining matchers and strategies
@@ -74,6 +435,6 @@ public class JsonMasker {
    */
   public String maskJson(String jsonInput, String configJson) throws Exception {
     Map<FieldMatcher, FieldMaskingRule> fieldStrategyMap = ConfigParser.parseConfig(configJson);
-    return maskJson(jsonInput, fieldStrategyMap);
+    return maskJson(jsonInput, fieldStrategyMap, context());
   }
 }
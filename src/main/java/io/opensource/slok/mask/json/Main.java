@@ -1,20 +1,20 @@
 package io.opensource.slok.mask.json;
 
 
-import io.opensource.slok.mask.json.matcher.CompositeFieldMatcher;
-import io.opensource.slok.mask.json.matcher.FieldMatcher;
-import io.opensource.slok.mask.json.matcher.RegexFieldMatcher;
-import io.opensource.slok.mask.json.strategy.FullMaskStrategy;
-import io.opensource.slok.mask.json.strategy.MiddleMaskStrategy;
-import java.io.File;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import org.apache.commons.io.FileUtils;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Main
+ * Batch command line tool: masks every matching JSON file under an input
+ * directory into an output directory.
+ *
+ * <pre>
+ * java -jar json-masker.jar &lt;config.json&gt; &lt;inputDir&gt; &lt;outputDir&gt;
+ *     [--glob PATTERN] [--workers N] [--compact] [--embedded N] [--force]
+ * </pre>
  *
  * @author slok
  * date: 09-Jan-2025
@@ -22,36 +22,91 @@ import org.apache.commons.io.FileUtils;
  */
 public class Main {
 
+  private static final String USAGE = String.join(System.lineSeparator(),
+      "Usage: json-masker <config.json> <inputDir> <outputDir> [options]",
+      "  --glob PATTERN   files to mask, relative to inputDir (default: **.json)",
+      "  --workers N      files masked in parallel (default: available processors)",
+      "  --compact        write single-line JSON instead of pretty-printed",
+      "  --embedded N     also mask JSON embedded in string values, up to N levels deep",
+      "  --force          mask all files, even those unchanged since the last run");
+
   public static void main(String[] args) throws Exception {
-    String json = """
-        {
-          "username": "JohnDoe",
-          "user_password": "secret123",
-          "details": {
-            "name": "Jonathan"
-          }
+    System.exit(run(args));
+  }
+
+  static int run(String[] args) throws Exception {
+    String glob = "**.json";
+    int workers = Runtime.getRuntime().availableProcessors();
+    boolean prettyPrint = true;
+    boolean force = false;
+    int embeddedJsonDepth = 0;
+    String[] positional = new String[3];
+    int count = 0;
+
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if ("--glob".equals(arg) || "--workers".equals(arg) || "--embedded".equals(arg)) {
+        if (i + 1 == args.length) {
+          return usage("Missing value for " + arg);
         }
-        """;
+        String value = args[++i];
+        if ("--glob".equals(arg)) {
+          glob = value;
+          continue;
+        }
+        int min = "--workers".equals(arg) ? 1 : 0;
+        int number = parseCount(value, min);
+        if (number < 0) {
+          return usage("Invalid value for " + arg + ": " + value + " (expected an integer >= " + min + ")");
+        }
+        if ("--workers".equals(arg)) {
+          workers = number;
+        } else {
+          embeddedJsonDepth = number;
+        }
+      } else if ("--compact".equals(arg)) {
+        prettyPrint = false;
+      } else if ("--force".equals(arg)) {
+        force = true;
+      } else if (!arg.startsWith("--") && count < positional.length) {
+        positional[count++] = arg;
+      } else {
+        return usage("Unknown argument: " + arg);
+      }
+    }
 
-    json = FileUtils.readFileToString(new File("src/main/resources/testJson.json"), StandardCharsets.UTF_8);
+    if (count < positional.length) {
+      System.err.println(USAGE);
+      return 2;
+    }
 
-    FieldMatcher regexMatcher = new RegexFieldMatcher(".*password.*");
-    FieldMatcher containsName = field -> field.toLowerCase(Locale.ROOT).contains("name");
+    String configJson = Files.readString(Paths.get(positional[0]), StandardCharsets.UTF_8);
+    Path inputDir = Paths.get(positional[1]);
+    Path outputDir = Paths.get(positional[2]);
 
-    FieldMatcher composite = new CompositeFieldMatcher(
-        List.of(regexMatcher, containsName),
-        CompositeFieldMatcher.MatchType.OR
-    );
+    BatchMasker batch = new BatchMasker(configJson, workers, prettyPrint, force, embeddedJsonDepth);
+    BatchMasker.Summary summary = batch.run(inputDir, outputDir, glob);
 
-    Map<String, FieldMaskingRule> rules = Map.of(
-        "user_password", new FieldMaskingRule(new FullMaskStrategy(), "#"),
-        "name", new FieldMaskingRule(new MiddleMaskStrategy(), "*")
-    );
+    System.out.print(summary);
+    return summary.getFailures().isEmpty() ? 0 : 1;
+  }
 
-    JsonMasker masker = new JsonMasker();
-//    String masked = masker.maskJson(json, composite, rules);
+  private static int usage(String message) {
+    System.err.println(message);
+    System.err.println(USAGE);
+    return 2;
+  }
 
-//    System.out.println(masked);
+  /**
+   * Parses a non-negative count, or returns -1 when the value is not an integer >= min.
+   */
+  private static int parseCount(String value, int min) {
+    try {
+      int number = Integer.parseInt(value);
+      return number >= min ? number : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
   }
 
 }
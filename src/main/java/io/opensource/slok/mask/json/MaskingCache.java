@@ -0,0 +1,191 @@
+package io.opensource.slok.mask.json;
+
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MaskingCache
+ * Bounded, content-addressed memo of masked payloads. Entries are keyed by the
+ * identity of the rule set, the masker's output configuration and a 64-bit hash
+ * of the raw input, and evicted in
+ * LRU order once the total byte weight of cached input + output exceeds the limit.
+ * The original input is kept with every entry and compared on hit, so a hash
+ * collision falls through to a regular masking pass instead of returning
+ * another payload's output.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+public class MaskingCache {
+
+  private final long maxWeightBytes;
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private long weightBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * @param maxWeightBytes upper bound for the summed size (UTF-16 bytes)
+   *                       of all cached inputs and outputs
+   */
+  public MaskingCache(long maxWeightBytes) {
+    if (maxWeightBytes <= 0) {
+      throw new IllegalArgumentException("maxWeightBytes must be positive: " + maxWeightBytes);
+    }
+    this.maxWeightBytes = maxWeightBytes;
+  }
+
+  /**
+   * Returns the cached masked output for the input under the given rule set,
+   * or null when there is no entry or the entry belongs to a different payload.
+   */
+  public String get(Map<FieldMatcher, FieldMaskingRule> rules, String input) {
+    return get(rules, 0, input, hash(input));
+  }
+
+  /**
+   * @param variant   output configuration of the caller, e.g. pretty vs compact;
+   *                  entries stored under another variant are not returned
+   * @param inputHash {@link #hash(String)} of the input
+   */
+  String get(Map<FieldMatcher, FieldMaskingRule> rules, int variant, String input, long inputHash) {
+    Key key = new Key(rules, variant, inputHash);
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+    }
+    if (entry != null && entry.input.equals(input)) {
+      hits.increment();
+      return entry.output;
+    }
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Stores the masked output for the input under the given rule set.
+   * Payloads heavier than the whole cache are not stored.
+   */
+  public void put(Map<FieldMatcher, FieldMaskingRule> rules, String input, String output) {
+    put(rules, 0, input, hash(input), output);
+  }
+
+  /**
+   * Stores the output under the caller's variant, see {@link #get(Map, int, String, long)}.
+   */
+  void put(Map<FieldMatcher, FieldMaskingRule> rules, int variant, String input, long inputHash,
+      String output) {
+    long weight = weigh(input, output);
+    if (weight > maxWeightBytes) {
+      return;
+    }
+
+    Key key = new Key(rules, variant, inputHash);
+    synchronized (this) {
+      Entry previous = entries.put(key, new Entry(input, output, weight));
+      if (previous != null) {
+        weightBytes -= previous.weight;
+      }
+      weightBytes += weight;
+
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (weightBytes > maxWeightBytes && eldest.hasNext()) {
+        weightBytes -= eldest.next().weight;
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    weightBytes = 0;
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long weightBytes() {
+    return weightBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "MaskingCache{hits=" + hitCount() + ", misses=" + missCount()
+        + ", evictions=" + evictionCount() + ", size=" + size()
+        + ", weightBytes=" + weightBytes() + "/" + maxWeightBytes + "}";
+  }
+
+  /**
+   * 64-bit FNV-1a over the UTF-16 code units, mixed with the length.
+   */
+  static long hash(String input) {
+    long h = 0xcbf29ce484222325L ^ input.length();
+    for (int i = 0; i < input.length(); i++) {
+      h ^= input.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return h;
+  }
+
+  private static long weigh(String input, String output) {
+    return ((long) input.length() + output.length()) * Character.BYTES;
+  }
+
+  private static final class Key {
+    private final Map<FieldMatcher, FieldMaskingRule> rules;
+    private final int variant;
+    private final long contentHash;
+
+    Key(Map<FieldMatcher, FieldMaskingRule> rules, int variant, long contentHash) {
+      this.rules = rules;
+      this.variant = variant;
+      this.contentHash = contentHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      // rule sets are compared by identity: two equal-looking maps may hold
+      // different strategy instances
+      return rules == other.rules && variant == other.variant && contentHash == other.contentHash;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * System.identityHashCode(rules) + variant) + Long.hashCode(contentHash);
+    }
+  }
+
+  private static final class Entry {
+    private final String input;
+    private final String output;
+    private final long weight;
+
+    Entry(String input, String output, long weight) {
+      this.input = input;
+      this.output = output;
+      this.weight = weight;
+    }
+  }
+}
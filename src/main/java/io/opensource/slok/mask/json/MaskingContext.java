@@ -0,0 +1,208 @@
+package io.opensource.slok.mask.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.io.output.StringBuilderWriter;
+
+/**
+ * MaskingContext
+ * Reusable working state for one masking call at a time: the configured writer,
+ * the output buffers and a memo of field name → rule lookups. A context is not
+ * thread-safe; {@link JsonMasker} takes one per thread from a static pool shared
+ * by all maskers, so a thread holds at most one pretty and one compact context.
+ * Parser and generator buffers come from Jackson's thread-local
+ * {@code BufferRecycler} pool, pinned explicitly so it does not depend on the
+ * Jackson version's default pool.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+public class MaskingContext {
+
+  static final JsonFactory FACTORY = JsonFactory.builder()
+      .recyclerPool(JsonRecyclerPools.threadLocalPool())
+      .build();
+  static final ObjectMapper MAPPER = new ObjectMapper(FACTORY);
+
+  private static final ObjectWriter PRETTY_WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+  private static final ObjectWriter COMPACT_WRITER = MAPPER.writer();
+
+  // Buffers that grew past these sizes are dropped after use instead of being kept
+  private static final int MAX_RETAINED_CHARS = 256 * 1024;
+  private static final int MAX_RETAINED_BYTES = 512 * 1024;
+  private static final int MAX_MEMOIZED_FIELDS = 1024;
+
+  // Marks a field name known to match no rule
+  private static final FieldMaskingRule NO_RULE = new FieldMaskingRule(null, null);
+
+  private static final ThreadLocal<MaskingContext> PRETTY_CONTEXTS =
+      ThreadLocal.withInitial(() -> new MaskingContext(true));
+  private static final ThreadLocal<MaskingContext> COMPACT_CONTEXTS =
+      ThreadLocal.withInitial(() -> new MaskingContext(false));
+
+  private final boolean prettyPrint;
+  private final ObjectWriter writer;
+
+  private StringBuilder text = new StringBuilder(1024);
+  private ByteArrayBuilder bytes = new ByteArrayBuilder(1024);
+
+  // Rule map of the call in progress, and the matchers and rules the memo was built from
+  private Map<FieldMatcher, FieldMaskingRule> activeRules;
+  private FieldMatcher[] snapshotMatchers = new FieldMatcher[0];
+  private FieldMaskingRule[] snapshotRules = new FieldMaskingRule[0];
+  private final Map<String, FieldMaskingRule> ruleByField = new HashMap<>();
+
+  /**
+   * Creates a context that pretty-prints its output.
+   */
+  public MaskingContext() {
+    this(true);
+  }
+
+  /**
+   * @param prettyPrint true for indented output, false for compact single-line output
+   */
+  public MaskingContext(boolean prettyPrint) {
+    this.prettyPrint = prettyPrint;
+    this.writer = prettyPrint ? PRETTY_WRITER : COMPACT_WRITER;
+  }
+
+  public boolean isPrettyPrint() {
+    return prettyPrint;
+  }
+
+  /**
+   * Returns the calling thread's shared context for the given output style.
+   */
+  static MaskingContext forThread(boolean prettyPrint) {
+    return (prettyPrint ? PRETTY_CONTEXTS : COMPACT_CONTEXTS).get();
+  }
+
+  JsonParser createParser(String json) throws IOException {
+    return FACTORY.createParser(json);
+  }
+
+  JsonParser createParser(char[] json, int offset, int length) throws IOException {
+    return FACTORY.createParser(json, offset, length);
+  }
+
+  JsonParser createParser(byte[] json) throws IOException {
+    return FACTORY.createParser(json);
+  }
+
+  /**
+   * Returns a parser reading the stream incrementally; the stream is left open.
+   */
+  JsonParser createParser(InputStream json) throws IOException {
+    JsonParser parser = FACTORY.createParser(json);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return parser;
+  }
+
+  /**
+   * Returns a generator writing UTF-8 straight to the stream; the stream is left open.
+   */
+  JsonGenerator streamGenerator(OutputStream out) throws IOException {
+    JsonGenerator generator = writer.createGenerator(out, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return generator;
+  }
+
+  /**
+   * Returns a generator writing into the reusable text buffer, which is cleared first.
+   */
+  JsonGenerator textGenerator() throws IOException {
+    text.setLength(0);
+    return writer.createGenerator(new StringBuilderWriter(text));
+  }
+
+  /**
+   * Returns a generator writing UTF-8 into the reusable byte buffer, which is cleared first.
+   */
+  JsonGenerator byteGenerator() throws IOException {
+    bytes.reset();
+    return writer.createGenerator(bytes, JsonEncoding.UTF8);
+  }
+
+  String takeText() {
+    String result = text.toString();
+    if (text.capacity() > MAX_RETAINED_CHARS) {
+      text = new StringBuilder(1024);
+    }
+    return result;
+  }
+
+  byte[] takeBytes() {
+    byte[] result = bytes.toByteArray();
+    if (result.length > MAX_RETAINED_BYTES) {
+      bytes = new ByteArrayBuilder(1024);
+    }
+    return result;
+  }
+
+  /**
+   * Finds the first rule whose matcher accepts the field name. Answers are remembered
+   * across calls for as long as the rule map holds the same matchers and rules; the
+   * first lookup of each call checks that against a snapshot, so changes made to the
+   * map between calls are picked up.
+   */
+  FieldMaskingRule ruleFor(String fieldName, Map<FieldMatcher, FieldMaskingRule> rules) {
+    if (rules != activeRules) {
+      if (!snapshotMatches(rules)) {
+        takeSnapshot(rules);
+      }
+      activeRules = rules;
+    }
+    if (ruleByField.size() >= MAX_MEMOIZED_FIELDS) {
+      ruleByField.clear();
+    }
+
+    FieldMaskingRule rule = ruleByField.get(fieldName);
+    if (rule == null) {
+      rule = JsonMasker.findRule(fieldName, rules);
+      ruleByField.put(fieldName, rule == null ? NO_RULE : rule);
+    }
+    return rule == NO_RULE ? null : rule;
+  }
+
+  /**
+   * Ends the current masking call. The context is pooled for the thread's lifetime,
+   * so it keeps only the snapshot, never the caller's map.
+   */
+  void releaseRules() {
+    activeRules = null;
+  }
+
+  private boolean snapshotMatches(Map<FieldMatcher, FieldMaskingRule> rules) {
+    if (rules.size() != snapshotMatchers.length) {
+      return false;
+    }
+    int i = 0;
+    for (Map.Entry<FieldMatcher, FieldMaskingRule> entry : rules.entrySet()) {
+      if (entry.getKey() != snapshotMatchers[i] || entry.getValue() != snapshotRules[i]) {
+        return false;
+      }
+      i++;
+    }
+    return true;
+  }
+
+  private void takeSnapshot(Map<FieldMatcher, FieldMaskingRule> rules) {
+    snapshotMatchers = rules.keySet().toArray(new FieldMatcher[0]);
+    snapshotRules = rules.values().toArray(new FieldMaskingRule[0]);
+    ruleByField.clear();
+  }
+}
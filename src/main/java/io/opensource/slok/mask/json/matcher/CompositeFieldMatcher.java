@@ -32,4 +32,9 @@ public class CompositeFieldMatcher implements FieldMatcher {
       return matchers.stream().anyMatch(m -> m.matches(fieldName));
     }
   }
+
+  @Override
+  public String toString() {
+    return matchType + matchers.toString();
+  }
 }
@@ -22,5 +22,9 @@ public class ContainsFieldMatcher implements FieldMatcher {
   public boolean matches(String fieldName) {
     return fieldName != null && fieldName.toLowerCase(Locale.ROOT).contains(keyword);
   }
-}
 
+  @Override
+  public String toString() {
+    return "contains:" + keyword;
+  }
+}
@@ -22,4 +22,9 @@ public class RegexFieldMatcher implements FieldMatcher {
   public boolean matches(String fieldName) {
     return fieldName != null && pattern.matcher(fieldName).matches();
   }
+
+  @Override
+  public String toString() {
+    return "regex:" + pattern.pattern();
+  }
 }
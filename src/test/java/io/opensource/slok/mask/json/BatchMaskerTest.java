@@ -0,0 +1,80 @@
+package io.opensource.slok.mask.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BatchMaskerTest
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+public class BatchMaskerTest {
+
+  private static final String TEST_DATA_DIR = "src/test/resources/jsonmask";
+  private static final String CONFIG_FILE = TEST_DATA_DIR + "/masking-config.json";
+
+  @TempDir
+  Path work;
+
+  @Test
+  public void testBatchMasksAndSkipsUnchangedFiles() throws Exception {
+    Path input = work.resolve("in");
+    Path output = work.resolve("out");
+    Files.createDirectories(input.resolve("nested"));
+    for (Path path : JsonMaskerTest.corpusFiles()) {
+      Files.copy(path, input.resolve("nested").resolve(path.getFileName()));
+    }
+    Files.writeString(input.resolve("broken.json"), "{\"ssn\": ", StandardCharsets.UTF_8);
+
+    String configJson = Files.readString(Paths.get(CONFIG_FILE), StandardCharsets.UTF_8);
+    int corpusSize = JsonMaskerTest.corpusFiles().size();
+
+    BatchMasker.Summary first = new BatchMasker(configJson, 4, true, false).run(input, output, "**.json");
+    assertEquals(corpusSize, first.getMasked());
+    assertEquals(1, first.getFailures().size());
+    assertTrue(first.getFailures().containsKey("broken.json"));
+    assertTrue(first.getRuleHits().values().stream().mapToLong(Long::longValue).sum() > 0);
+    assertFalse(Files.readString(output.resolve("nested/customer-profile.json")).contains("123-45-6789"),
+        "SSN should be masked");
+    assertFalse(Files.exists(output.resolve("broken.json")), "Failed files should not be written");
+
+    BatchMasker.Summary second = new BatchMasker(configJson, 2, true, false).run(input, output, "**.json");
+    assertEquals(0, second.getMasked());
+    assertEquals(corpusSize, second.getSkipped());
+
+    Path touched = input.resolve("nested/largejunk.json");
+    Files.setLastModifiedTime(touched, FileTime.fromMillis(Files.getLastModifiedTime(touched).toMillis() + 5000));
+    BatchMasker.Summary third = new BatchMasker(configJson, 2, true, false).run(input, output, "nested/large*.json");
+    assertEquals(1, third.getMasked());
+    assertEquals(0, third.getSkipped());
+    assertTrue(third.getFailures().isEmpty());
+
+    // The narrower run must not have dropped the other files from the manifest
+    BatchMasker.Summary fourth = new BatchMasker(configJson, 2, true, false).run(input, output, "**.json");
+    assertEquals(0, fourth.getMasked());
+    assertEquals(corpusSize, fourth.getSkipped());
+  }
+
+  @Test
+  public void testInvalidCommandLineOptionsExitWithUsage() throws Exception {
+    String[] base = {"config.json", work.resolve("in").toString(), work.resolve("out").toString()};
+    String[][] invalid = {
+        {"--workers", "abc"}, {"--workers", "0"}, {"--embedded", "-1"}, {"--workers"}, {"--glob"}, {"--bogus"}};
+    for (String[] options : invalid) {
+      String[] args = new String[base.length + options.length];
+      System.arraycopy(base, 0, args, 0, base.length);
+      System.arraycopy(options, 0, args, base.length, options.length);
+      assertEquals(2, Main.run(args), "Expected usage exit for " + String.join(" ", options));
+    }
+  }
+}
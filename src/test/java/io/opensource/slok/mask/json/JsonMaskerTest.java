@@ -12,6 +12,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -43,14 +44,7 @@ public class JsonMaskerTest {
 
   @Test
   public void testMaskAllJsonFiles() throws Exception {
-    List<Path> jsonFiles = new ArrayList<>();
-    
-    try (Stream<Path> paths = Files.walk(Paths.get(TEST_DATA_DIR))) {
-      paths.filter(Files::isRegularFile)
-           .filter(p -> p.toString().endsWith(".json"))
-           .filter(p -> !p.toString().contains("-config"))
-           .forEach(jsonFiles::add);
-    }
+    List<Path> jsonFiles = corpusFiles();
 
     assertFalse(jsonFiles.isEmpty(), "No test JSON files found");
 
@@ -215,6 +209,240 @@ public class JsonMaskerTest {
     System.out.println("Large Junk Masking:\n" + masked);
   }
 
+  @Test
+  public void testCachedMaskingReturnsSameOutput() throws Exception {
+    String input = Files.readString(Paths.get(TEST_DATA_DIR + "/customer-profile.json"), StandardCharsets.UTF_8);
+    MaskingCache cache = new MaskingCache(1024 * 1024);
+    JsonMasker cachingMasker = new JsonMasker(cache);
+
+    String first = cachingMasker.maskJson(input, rules);
+    String second = cachingMasker.maskJson(new String(input.toCharArray()), rules);
+
+    assertEquals(masker.maskJson(input, rules), first);
+    assertSame(first, second, "Second call should be served from the cache");
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+
+    // A different rule set instance must not share entries
+    Map<FieldMatcher, FieldMaskingRule> otherRules = ConfigParser.parseConfig(
+        Files.readString(Paths.get(CONFIG_FILE), StandardCharsets.UTF_8));
+    cachingMasker.maskJson(input, otherRules);
+    assertEquals(2, cache.missCount());
+  }
+
+  @Test
+  public void testSharedCacheSeparatesMaskerConfigurations() throws Exception {
+    String input = "{\"payload\":\"{\\\"ssn\\\":\\\"123-45-6789\\\"}\"}";
+    MaskingCache cache = new MaskingCache(1024 * 1024);
+    JsonMasker plain = new JsonMasker(cache, true, 0);
+    JsonMasker embedded = new JsonMasker(cache, true, 2);
+    JsonMasker compact = new JsonMasker(cache, false, 0);
+
+    String plainOutput = plain.maskJson(input, rules);
+    assertTrue(plainOutput.contains("123-45-6789"));
+    assertFalse(embedded.maskJson(input, rules).contains("123-45-6789"), "Embedded SSN should be masked");
+    assertFalse(compact.maskJson(input, rules).contains("\n"), "Compact output should be single-line");
+    assertEquals(0, cache.hitCount());
+    assertEquals(3, cache.size());
+
+    assertSame(plainOutput, plain.maskJson(input, rules));
+    assertEquals(1, cache.hitCount());
+  }
+
+  @Test
+  public void testConfigStringMaskingBypassesCache() throws Exception {
+    String input = Files.readString(Paths.get(TEST_DATA_DIR + "/customer-profile.json"), StandardCharsets.UTF_8);
+    String configJson = Files.readString(Paths.get(CONFIG_FILE), StandardCharsets.UTF_8);
+    MaskingCache cache = new MaskingCache(1024 * 1024);
+    JsonMasker cachingMasker = new JsonMasker(cache);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(masker.maskJson(input, rules), cachingMasker.maskJson(input, configJson));
+    }
+
+    // Each call parses a fresh rule set, so entries could never be hit
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.missCount());
+  }
+
+  @Test
+  public void testCacheEvictsByWeight() throws Exception {
+    String a = "{\"email\":\"alice@example.com\"}";
+    String b = "{\"email\":\"bob@example.com\"}";
+    String maskedA = masker.maskJson(a, rules);
+
+    // room for exactly one entry
+    MaskingCache cache = new MaskingCache((long) (a.length() + maskedA.length()) * Character.BYTES);
+    JsonMasker cachingMasker = new JsonMasker(cache);
+
+    cachingMasker.maskJson(a, rules);
+    cachingMasker.maskJson(b, rules);
+    cachingMasker.maskJson(a, rules);
+
+    assertEquals(0, cache.hitCount());
+    assertEquals(3, cache.missCount());
+    assertEquals(2, cache.evictionCount());
+    assertEquals(1, cache.size());
+    assertTrue(cache.weightBytes() <= (long) (a.length() + maskedA.length()) * Character.BYTES);
+  }
+
+  @Test
+  public void testStreamingMatchesTreeMasking() throws Exception {
+    JsonMasker compactMasker = new JsonMasker(null, false);
+
+    // Compared as trees: the streaming engine keeps duplicate keys, the tree keeps the last one
+    for (Path path : corpusFiles()) {
+      String input = Files.readString(path, StandardCharsets.UTF_8);
+      JsonNode expected = masker.maskNode(mapper.readTree(input), rules);
+
+      assertEquals(expected, mapper.readTree(masker.maskJson(input, rules)),
+          "Pretty output differs for " + path.getFileName());
+      assertEquals(expected, mapper.readTree(compactMasker.maskJson(input, rules)),
+          "Compact output differs for " + path.getFileName());
+      assertEquals(expected, mapper.readTree(masker.maskJson(input.getBytes(StandardCharsets.UTF_8), rules)),
+          "Byte output differs for " + path.getFileName());
+    }
+
+    String input = Files.readString(Paths.get(TEST_DATA_DIR + "/customer-profile.json"), StandardCharsets.UTF_8);
+    JsonNode tree = masker.maskNode(mapper.readTree(input), rules);
+    assertEquals(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(tree), masker.maskJson(input, rules));
+    assertEquals(mapper.writeValueAsString(tree), compactMasker.maskJson(input, rules));
+  }
+
+  @Test
+  public void testStructuralMasking() throws Exception {
+    String configJson = Files.readString(Paths.get(TEST_DATA_DIR + "/structural-config.json"), StandardCharsets.UTF_8);
+    Map<FieldMatcher, FieldMaskingRule> structuralRules = ConfigParser.parseConfig(configJson);
+
+    String profile = Files.readString(Paths.get(TEST_DATA_DIR + "/customer-profile.json"), StandardCharsets.UTF_8);
+    JsonNode masked = mapper.readTree(masker.maskJson(profile, structuralRules));
+
+    // Redacted subtree becomes the placeholder
+    assertEquals("[REMOVED]", masked.get("medicalInfo").asText());
+    // Dropped field is gone, siblings stay
+    assertFalse(masked.get("financialInfo").has("creditCards"), "creditCards should be dropped");
+    assertTrue(masked.get("financialInfo").has("bankAccount"));
+    // Numbers are masked as strings only when the rule opts in
+    assertEquals("******", masked.get("financialInfo").get("salary").asText());
+    // Booleans under a string-only rule are left alone
+    assertTrue(masked.get("preferences").get("notifications").get("email").isBoolean());
+    assertFalse(masked.toString().contains("4532015112830366"), "Card number should be gone");
+    assertFalse(masked.toString().contains("Penicillin"), "Medical info should be gone");
+
+    String record = Files.readString(Paths.get(TEST_DATA_DIR + "/healthcare-record.json"), StandardCharsets.UTF_8);
+    JsonNode maskedRecord = mapper.readTree(masker.maskJson(record, structuralRules));
+    assertEquals("[REMOVED]", maskedRecord.get("medicalHistory").asText());
+    assertFalse(maskedRecord.has("paymentInfo"), "paymentInfo should be dropped");
+    assertEquals("****", maskedRecord.get("consent").get("hipaaAuthorization").asText());
+
+    // The tree engine gives the same result
+    assertEquals(masked, masker.maskNode(mapper.readTree(profile), structuralRules));
+    assertEquals(maskedRecord, masker.maskNode(mapper.readTree(record), structuralRules));
+
+    // Floats are masked from their parsed value, the same in both engines
+    String floats = "{\"salary\":1.50,\"baseSalary\":2e3}";
+    JsonNode maskedFloats = mapper.readTree(masker.maskJson(floats, structuralRules));
+    assertEquals("***", maskedFloats.get("salary").asText());
+    assertEquals("******", maskedFloats.get("baseSalary").asText());
+    assertEquals(maskedFloats, masker.maskNode(mapper.readTree(floats), structuralRules));
+  }
+
+  @Test
+  public void testMaskRuleWithoutStrategyIsRejected() {
+    String configJson = "{\"rules\":[{\"match\":{\"type\":\"contains\",\"value\":\"ssn\"}}]}";
+    assertThrows(IllegalArgumentException.class, () -> ConfigParser.parseConfig(configJson));
+
+    String badAction = "{\"rules\":[{\"match\":{\"type\":\"contains\",\"value\":\"ssn\"},\"action\":\"shred\"}]}";
+    assertThrows(IllegalArgumentException.class, () -> ConfigParser.parseConfig(badAction));
+  }
+
+  @Test
+  public void testEmbeddedJsonMasking() throws Exception {
+    String inner = "{\"ssn\":\"123-45-6789\",\"note\":\"ok\"}";
+    String nested = mapper.writeValueAsString(mapper.createObjectNode()
+        .put("password", "SecureP@ssw0rd!2025")
+        .put("payload", inner));
+    String input = mapper.writeValueAsString(mapper.createObjectNode()
+        .put("payload", inner)
+        .put("envelope", nested)
+        .put("plain", "no json {here")
+        .put("log", "POST /pay body={\"cardNumber\":\"4532015112830366\"} status=200")
+        .set("items", mapper.createArrayNode().add(inner)));
+
+    JsonMasker embedded = new JsonMasker(null, false, 2);
+    JsonNode masked = mapper.readTree(embedded.maskJson(input, rules));
+
+    JsonNode payload = mapper.readTree(masked.get("payload").asText());
+    assertEquals("***********", payload.get("ssn").asText());
+    assertEquals("ok", payload.get("note").asText());
+
+    JsonNode envelope = mapper.readTree(masked.get("envelope").asText());
+    assertFalse(envelope.get("password").asText().contains("SecureP@ssw0rd"), "Password should be masked");
+    assertFalse(envelope.get("payload").asText().contains("123-45-6789"), "Second level SSN should be masked");
+
+    assertEquals("no json {here", masked.get("plain").asText());
+    assertEquals("POST /pay body={\"cardNumber\":\"4532********0366\"} status=200", masked.get("log").asText());
+    assertFalse(masked.get("items").get(0).asText().contains("123-45-6789"), "Array item SSN should be masked");
+
+    // Depth limit: the second level stays opaque
+    JsonNode shallow = mapper.readTree(new JsonMasker(null, false, 1).maskJson(input, rules));
+    assertTrue(mapper.readTree(shallow.get("envelope").asText()).get("payload").asText().contains("123-45-6789"));
+
+    // Off by default
+    assertTrue(masker.maskJson(input, rules).contains("123-45-6789"));
+
+    // The tree engine gives the same result
+    assertEquals(masked, embedded.maskNode(mapper.readTree(input), rules));
+
+    // Documents no rule applies to keep their original formatting
+    String unmatched = "{\"note\":\"{ \\\"a\\\" : 1.50 }\"}";
+    assertEquals("{ \"a\" : 1.50 }", mapper.readTree(embedded.maskJson(unmatched, rules)).get("note").asText());
+    assertEquals(mapper.readTree(unmatched), embedded.maskNode(mapper.readTree(unmatched), rules));
+  }
+
+  @Test
+  public void testMaskTextLogLine() {
+    String line = "2025-01-09 INFO [api] request {\"email\":\"jennifer.anderson@email.com\",\"id\":7} done {oops}";
+    assertEquals("2025-01-09 INFO [api] request {\"email\":\"je***********************om\",\"id\":7} done {oops}",
+        masker.maskText(line, rules));
+
+    String plain = "2025-01-09 INFO nothing to see";
+    assertSame(plain, masker.maskText(plain, rules));
+
+    String unmatched = "2025-01-09 INFO [api] request { \"id\" : 7 } done";
+    assertSame(unmatched, masker.maskText(unmatched, rules));
+
+    // Objects inside braces that are not JSON, and after a brace that never closes
+    String mapLike = "{level=INFO, body={\"ssn\":\"123-45-6789\"}} {oops {\"password\":\"hunter2\"}";
+    assertEquals("{level=INFO, body={\"ssn\":\"***********\"}} {oops {\"password\":\"*******\"}",
+        masker.maskText(mapLike, rules));
+  }
+
+  @Test
+  public void testMaskTextStrayBracesStayLinear() {
+    String unclosed = "{".repeat(128_000);
+    String unparseable = "{x".repeat(32_000) + "}".repeat(32_000);
+    String mixed = "[".repeat(1_000) + "{\"a\":[".repeat(20_000) + "\"";
+
+    // Rescanning from every brace took seconds at these sizes
+    assertTimeout(Duration.ofSeconds(2), () -> {
+      assertSame(unclosed, masker.maskText(unclosed, rules));
+      assertSame(unparseable, masker.maskText(unparseable, rules));
+      assertSame(mixed, masker.maskText(mixed, rules));
+    });
+
+    // Running out of re-parse budget must not leave valid inner objects unmasked
+    String buried = "{x ".repeat(6) + "{\"ssn\":\"123-45-6789\"}" + " }".repeat(6);
+    assertEquals("{x ".repeat(6) + "{\"ssn\":\"***********\"}" + " }".repeat(6), masker.maskText(buried, rules));
+
+    String deep = "{x ".repeat(10_000) + "{\"ssn\":\"123-45-6789\"} {\"ssn\":\"987-65-4321\"}" + " }".repeat(10_000);
+    assertTimeout(Duration.ofSeconds(2), () -> {
+      String masked = masker.maskText(deep, rules);
+      assertFalse(masked.contains("123-45-6789"), "Innermost SSN should be masked");
+      assertFalse(masked.contains("987-65-4321"), "Innermost SSN should be masked");
+    });
+  }
+
   private void verifySensitiveDataMasked(String fileName, String original, String masked) {
     // Skip validation for config files
     if (fileName.contains("-config")) {
@@ -232,4 +460,16 @@ public class JsonMaskerTest {
       assertFalse(masked.contains("SecureP@ssw0rd"), "Password should be masked in " + fileName);
     }
   }
+
+  static List<Path> corpusFiles() throws Exception {
+    List<Path> jsonFiles = new ArrayList<>();
+
+    try (Stream<Path> paths = Files.walk(Paths.get(TEST_DATA_DIR))) {
+      paths.filter(Files::isRegularFile)
+           .filter(p -> p.toString().endsWith(".json"))
+           .filter(p -> !p.toString().contains("-config"))
+           .forEach(jsonFiles::add);
+    }
+    return jsonFiles;
+  }
 }
@@ -0,0 +1,118 @@
+package io.opensource.slok.mask.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opensource.slok.mask.json.matcher.ContainsFieldMatcher;
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+import io.opensource.slok.mask.json.strategy.FullMaskStrategy;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MaskingContextTest
+ * Allocation regression test: bytes allocated per maskJson call must stay close
+ * to the size of the result. Building a tree per call allocates ~10-40x more.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MaskingContextTest {
+
+  private static final String TEST_DATA_DIR = "src/test/resources/jsonmask";
+  private static final String CONFIG_FILE = TEST_DATA_DIR + "/masking-config.json";
+  private static final int WARMUP_CALLS = 500;
+  private static final int MEASURED_CALLS = 200;
+
+  // Result String (at most 2 bytes per char) plus masked values and per-call bookkeeping
+  private static final long BYTES_PER_OUTPUT_CHAR = 4;
+  private static final long FIXED_BYTES_PER_CALL = 4096;
+
+  private Map<FieldMatcher, FieldMaskingRule> rules;
+  private com.sun.management.ThreadMXBean threadBean;
+
+  @BeforeAll
+  public void setup() throws Exception {
+    String configJson = Files.readString(Paths.get(CONFIG_FILE), StandardCharsets.UTF_8);
+    rules = ConfigParser.parseConfig(configJson);
+    threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test
+  public void testAllocatedBytesPerCall() throws Exception {
+    JsonMasker pretty = new JsonMasker();
+    JsonMasker compact = new JsonMasker(null, false);
+
+    for (Path path : JsonMaskerTest.corpusFiles()) {
+      String input = Files.readString(path, StandardCharsets.UTF_8);
+      assertWithinBudget(pretty, input, path);
+      assertWithinBudget(compact, input, path);
+    }
+  }
+
+  @Test
+  public void testExplicitContextIsReusable() throws Exception {
+    JsonMasker masker = new JsonMasker();
+    MaskingContext context = new MaskingContext(false);
+    String input = Files.readString(Paths.get(TEST_DATA_DIR + "/customer-profile.json"), StandardCharsets.UTF_8);
+
+    String first = masker.maskJson(input, rules, context);
+    String second = masker.maskJson(input, rules, context);
+
+    assertEquals(first, second);
+    assertFalse(first.contains("\n"), "Compact context should produce single-line output");
+    assertFalse(first.contains("123-45-6789"), "SSN should be masked");
+  }
+
+  @Test
+  public void testMaskersShareThreadContext() {
+    assertSame(MaskingContext.forThread(true), MaskingContext.forThread(true));
+    assertSame(MaskingContext.forThread(false), MaskingContext.forThread(false));
+    assertNotSame(MaskingContext.forThread(true), MaskingContext.forThread(false));
+    assertFalse(MaskingContext.forThread(false).isPrettyPrint());
+  }
+
+  @Test
+  public void testRulesAddedBetweenCallsApply() throws Exception {
+    JsonMasker masker = new JsonMasker(null, false);
+    Map<FieldMatcher, FieldMaskingRule> mutable = new LinkedHashMap<>();
+    String input = "{\"email\":\"a@b.com\"}";
+    assertEquals(input, masker.maskJson(input, mutable));
+
+    mutable.put(new ContainsFieldMatcher("email"), new FieldMaskingRule(new FullMaskStrategy(), "*"));
+    assertEquals("{\"email\":\"*******\"}", masker.maskJson(input, mutable));
+    assertEquals(masker.maskNode(new ObjectMapper().readTree(input), mutable).toString(),
+        masker.maskJson(input, mutable));
+  }
+
+  private void assertWithinBudget(JsonMasker masker, String input, Path path) throws Exception {
+    long threadId = Thread.currentThread().getId();
+    String output = null;
+
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      output = masker.maskJson(input, rules);
+    }
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < MEASURED_CALLS; i++) {
+      output = masker.maskJson(input, rules);
+    }
+    long perCall = (threadBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+
+    long budget = output.length() * BYTES_PER_OUTPUT_CHAR + FIXED_BYTES_PER_CALL;
+    assertTrue(perCall <= budget,
+        path.getFileName() + " allocated " + perCall + " bytes per call, budget " + budget);
+  }
+}
@@ -0,0 +1,188 @@
+package io.opensource.slok.mask.json.load;
+
+import io.opensource.slok.mask.json.FieldMaskingRule;
+import io.opensource.slok.mask.json.JsonMasker;
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * LoadTestHarness
+ * Drives one shared {@link JsonMasker} and rule set from many threads over a
+ * pool of pre-generated payloads, recording the latency of every call.
+ * Virtual threads need a Java 21+ runtime; the library itself targets 17, so
+ * they are looked up reflectively.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+public class LoadTestHarness {
+
+  public enum ThreadMode {
+    PLATFORM,
+    VIRTUAL
+  }
+
+  private final JsonMasker masker;
+  private final Map<FieldMatcher, FieldMaskingRule> rules;
+  private final List<String> payloads;
+  private final int[] payloadBytes;
+
+  public LoadTestHarness(JsonMasker masker, Map<FieldMatcher, FieldMaskingRule> rules, List<String> payloads) {
+    if (payloads.isEmpty()) {
+      throw new IllegalArgumentException("No payloads to mask");
+    }
+    this.masker = masker;
+    this.rules = rules;
+    this.payloads = payloads;
+    // UTF-8 sizes, computed once so the timed loop does not encode
+    this.payloadBytes = payloads.stream().mapToInt(p -> p.getBytes(StandardCharsets.UTF_8).length).toArray();
+  }
+
+  /**
+   * Runs opsPerThread masking calls on each of threads threads, all released at once.
+   * Thread i starts at payload i, so sizes stay mixed across threads at any moment.
+   */
+  public Result run(int threads, int opsPerThread, ThreadMode mode) throws Exception {
+    long[][] latencies = new long[threads][opsPerThread];
+    long[] bytes = new long[threads];
+    CountDownLatch start = new CountDownLatch(1);
+
+    long gcMillisBefore = gcMillis();
+    long gcCountBefore = gcCount();
+
+    ExecutorService executor = newExecutor(threads, mode);
+    long elapsed;
+    try {
+      List<Future<?>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          start.await();
+          long[] own = latencies[thread];
+          for (int i = 0; i < opsPerThread; i++) {
+            int index = (thread + i) % payloads.size();
+            long begin = System.nanoTime();
+            masker.maskJson(payloads.get(index), rules);
+            own[i] = System.nanoTime() - begin;
+            bytes[thread] += payloadBytes[index];
+          }
+          return null;
+        }));
+      }
+
+      long begin = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      elapsed = System.nanoTime() - begin;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long[] all = new long[threads * opsPerThread];
+    for (int t = 0; t < threads; t++) {
+      System.arraycopy(latencies[t], 0, all, t * opsPerThread, opsPerThread);
+    }
+    Arrays.sort(all);
+
+    return new Result(threads, mode, all, Arrays.stream(bytes).sum(), elapsed,
+        gcMillis() - gcMillisBefore, gcCount() - gcCountBefore);
+  }
+
+  private static ExecutorService newExecutor(int threads, ThreadMode mode) {
+    if (mode == ThreadMode.PLATFORM) {
+      return Executors.newFixedThreadPool(threads);
+    }
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual threads need Java 21+, running on "
+          + System.getProperty("java.version"), e);
+    }
+  }
+
+  private static long gcMillis() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+  }
+
+  private static long gcCount() {
+    return ManagementFactory.getGarbageCollectorMXBeans().stream()
+        .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+  }
+
+  /**
+   * Throughput, latency percentiles and GC cost of one run.
+   */
+  public static class Result {
+    private final int threads;
+    private final ThreadMode mode;
+    private final long[] sortedLatencies;
+    private final long bytes;
+    private final long elapsedNanos;
+    private final long gcMillis;
+    private final long gcCount;
+
+    Result(int threads, ThreadMode mode, long[] sortedLatencies, long bytes, long elapsedNanos,
+        long gcMillis, long gcCount) {
+      this.threads = threads;
+      this.mode = mode;
+      this.sortedLatencies = sortedLatencies;
+      this.bytes = bytes;
+      this.elapsedNanos = elapsedNanos;
+      this.gcMillis = gcMillis;
+      this.gcCount = gcCount;
+    }
+
+    public double getOpsPerSecond() {
+      return sortedLatencies.length / (elapsedNanos / 1e9);
+    }
+
+    public double getMegabytesPerSecond() {
+      return (bytes / (1024.0 * 1024.0)) / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Latency at the given percentile (0..100) in microseconds, nearest-rank.
+     */
+    public double getPercentileMicros(double percentile) {
+      int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length);
+      int index = Math.min(sortedLatencies.length - 1, Math.max(0, rank - 1));
+      return sortedLatencies[index] / 1_000.0;
+    }
+
+    public long getGcMillis() {
+      return gcMillis;
+    }
+
+    public long getGcCount() {
+      return gcCount;
+    }
+
+    public double getElapsedMillis() {
+      return elapsedNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d %s threads, %d calls in %.0f ms: %.0f ops/s, %.1f MB/s, "
+              + "p50=%.1fus p99=%.1fus p999=%.1fus, GC %d ms in %d collections",
+          threads, mode.name().toLowerCase(), sortedLatencies.length, getElapsedMillis(),
+          getOpsPerSecond(), getMegabytesPerSecond(), getPercentileMicros(50),
+          getPercentileMicros(99), getPercentileMicros(99.9), gcMillis, gcCount);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package io.opensource.slok.mask.json.load;
+
+import io.opensource.slok.mask.json.ConfigParser;
+import io.opensource.slok.mask.json.FieldMaskingRule;
+import io.opensource.slok.mask.json.JsonMasker;
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MaskingLoadTest
+ * Concurrent load test against stored baselines. Excluded from the default build;
+ * run it with {@code mvn test -Pload-test}.
+ * System properties: loadtest.threads, loadtest.ops, loadtest.mode (platform|virtual),
+ * loadtest.seed, loadtest.tolerance (allowed regression, 0.30 = 30%) and
+ * loadtest.updateBaseline=true to record the current machine's numbers.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MaskingLoadTest {
+
+  private static final String TEST_DATA_DIR = "src/test/resources/jsonmask";
+  private static final String CONFIG_FILE = TEST_DATA_DIR + "/masking-config.json";
+  private static final Path BASELINE_FILE = Paths.get("src/test/resources/loadtest/baseline.properties");
+  private static final int PAYLOAD_POOL = 100;
+
+  private final int threads = Integer.getInteger("loadtest.threads", 200);
+  private final int opsPerThread = Integer.getInteger("loadtest.ops", 200);
+  private final long seed = Long.getLong("loadtest.seed", 42L);
+  private final double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.30"));
+  private final boolean updateBaseline = Boolean.getBoolean("loadtest.updateBaseline");
+  private final LoadTestHarness.ThreadMode mode = LoadTestHarness.ThreadMode.valueOf(
+      System.getProperty("loadtest.mode", "platform").toUpperCase(Locale.ROOT));
+
+  private Map<FieldMatcher, FieldMaskingRule> rules;
+  private List<String> payloads;
+
+  @BeforeAll
+  public void setup() throws Exception {
+    rules = ConfigParser.parseConfig(Files.readString(Paths.get(CONFIG_FILE), StandardCharsets.UTF_8));
+
+    List<Path> samples;
+    try (Stream<Path> paths = Files.list(Paths.get(TEST_DATA_DIR))) {
+      samples = paths.filter(p -> p.toString().endsWith(".json"))
+          .filter(p -> !p.toString().contains("-config"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    // Production mix: mostly small events, some medium documents, a few large ones
+    PayloadGenerator generator = new PayloadGenerator(samples, rules, seed);
+    payloads = new ArrayList<>(PAYLOAD_POOL);
+    for (int i = 0; i < PAYLOAD_POOL; i++) {
+      if (i % 20 == 0) {
+        payloads.add(generator.generate(3, 6, 0.1, 64));
+      } else if (i % 4 == 0) {
+        payloads.add(generator.generate(2, 6, 0.2, 32));
+      } else {
+        payloads.add(generator.generate(1, 6, 0.3, 16));
+      }
+    }
+  }
+
+  @Test
+  public void testThroughputAndLatencyAgainstBaseline() throws Exception {
+    LoadTestHarness harness = new LoadTestHarness(new JsonMasker(), rules, payloads);
+
+    // Warm-up with the same shape, results discarded
+    harness.run(threads, Math.max(1, opsPerThread / 5), mode);
+    LoadTestHarness.Result result = harness.run(threads, opsPerThread, mode);
+    System.out.println("Load test: " + result);
+
+    String prefix = mode.name().toLowerCase(Locale.ROOT) + "." + threads + ".";
+    Properties baseline = loadBaseline();
+
+    if (updateBaseline) {
+      baseline.setProperty(prefix + "opsPerSecond", String.format(Locale.ROOT, "%.0f", result.getOpsPerSecond()));
+      baseline.setProperty(prefix + "p99Micros", String.format(Locale.ROOT, "%.1f", result.getPercentileMicros(99)));
+      storeBaseline(baseline);
+      System.out.println("Load test baseline updated: " + BASELINE_FILE);
+      return;
+    }
+
+    String opsBaseline = baseline.getProperty(prefix + "opsPerSecond");
+    String p99Baseline = baseline.getProperty(prefix + "p99Micros");
+    if (opsBaseline == null || p99Baseline == null) {
+      System.out.println("No baseline for " + prefix + "*, run with -Dloadtest.updateBaseline=true to record one");
+      return;
+    }
+
+    double minOps = Double.parseDouble(opsBaseline) * (1 - tolerance);
+    double maxP99 = Double.parseDouble(p99Baseline) * (1 + tolerance);
+    assertTrue(result.getOpsPerSecond() >= minOps,
+        String.format("Throughput regressed: %.0f ops/s, minimum %.0f", result.getOpsPerSecond(), minOps));
+    assertTrue(result.getPercentileMicros(99) <= maxP99,
+        String.format("p99 latency regressed: %.1fus, maximum %.1fus", result.getPercentileMicros(99), maxP99));
+  }
+
+  @Test
+  public void testGeneratedPayloadsAreMaskable() throws Exception {
+    JsonMasker masker = new JsonMasker();
+    for (String payload : payloads) {
+      assertNotNull(masker.maskJson(payload, rules));
+    }
+  }
+
+  private static Properties loadBaseline() throws Exception {
+    Properties baseline = new Properties();
+    if (Files.exists(BASELINE_FILE)) {
+      try (Reader reader = Files.newBufferedReader(BASELINE_FILE, StandardCharsets.UTF_8)) {
+        baseline.load(reader);
+      }
+    }
+    return baseline;
+  }
+
+  /**
+   * Writes the baselines below the file's existing comment header, which is kept as is.
+   */
+  private static void storeBaseline(Properties baseline) throws Exception {
+    List<String> lines = new ArrayList<>();
+    if (Files.exists(BASELINE_FILE)) {
+      for (String line : Files.readAllLines(BASELINE_FILE, StandardCharsets.UTF_8)) {
+        if (!line.startsWith("#")) {
+          break;
+        }
+        lines.add(line);
+      }
+    }
+    if (lines.isEmpty()) {
+      lines.add("#MaskingLoadTest baselines: <mode>.<threads>.<metric>");
+    }
+
+    // store() escapes keys and values; drop the timestamp comment it adds
+    StringWriter values = new StringWriter();
+    baseline.store(values, null);
+    values.toString().lines().filter(line -> !line.startsWith("#")).sorted().forEach(lines::add);
+
+    Files.createDirectories(BASELINE_FILE.getParent());
+    Files.write(BASELINE_FILE, lines, StandardCharsets.UTF_8);
+  }
+}
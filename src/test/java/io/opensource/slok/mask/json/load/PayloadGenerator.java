@@ -0,0 +1,227 @@
+package io.opensource.slok.mask.json.load;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opensource.slok.mask.json.FieldMaskingRule;
+import io.opensource.slok.mask.json.matcher.FieldMatcher;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * PayloadGenerator
+ * Builds synthetic JSON payloads shaped like the sample documents. Per nesting
+ * level, the mix of objects, arrays and scalar types is sampled from the samples;
+ * depth, width and string length are parameters. Keys matched by the rule set
+ * feed the "hit" pool, all others the "miss" pool, so the key-hit ratio of
+ * generated payloads can be dialed independently of shape.
+ *
+ * @author slok
+ * date: 19-Oct-2026
+ * @since 1.1.0
+ */
+public class PayloadGenerator {
+
+  private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-@.";
+
+  private enum Kind {
+    OBJECT, ARRAY, STRING, NUMBER, BOOLEAN, NULL
+  }
+
+  private final List<String> hitKeys;
+  private final List<String> missKeys;
+  // Counts per Kind at each nesting level, for object members and array items
+  private final List<int[]> memberKinds = new ArrayList<>();
+  private final List<int[]> itemKinds = new ArrayList<>();
+  private final JsonFactory factory = new JsonFactory();
+  private final Random random;
+
+  /**
+   * @param samples sample documents whose field names and value mix seed the generator
+   * @param rules   rule set deciding which field names count as hits
+   * @param seed    seed for reproducible payloads
+   */
+  public PayloadGenerator(List<Path> samples, Map<FieldMatcher, FieldMaskingRule> rules, long seed)
+      throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    Set<String> names = new LinkedHashSet<>();
+    for (Path sample : samples) {
+      collectShape(mapper.readTree(Files.readString(sample, StandardCharsets.UTF_8)), 0, names);
+    }
+
+    this.hitKeys = new ArrayList<>();
+    this.missKeys = new ArrayList<>();
+    for (String name : names) {
+      boolean hit = rules.keySet().stream().anyMatch(m -> m.matches(name));
+      (hit ? hitKeys : missKeys).add(name);
+    }
+    if (hitKeys.isEmpty() || missKeys.isEmpty()) {
+      throw new IllegalArgumentException("Samples need both matched and unmatched field names");
+    }
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Generates one payload.
+   *
+   * @param depth        nesting levels below the root object
+   * @param width        fields per object and items per array
+   * @param keyHitRatio  share of string fields whose key matches a rule, 0..1
+   * @param stringLength length of every generated string value
+   */
+  public String generate(int depth, int width, double keyHitRatio, int stringLength) throws IOException {
+    StringWriter out = new StringWriter();
+    try (JsonGenerator generator = factory.createGenerator(out)) {
+      writeObject(generator, 0, depth, width, keyHitRatio, stringLength);
+    }
+    return out.toString();
+  }
+
+  public List<String> getHitKeys() {
+    return hitKeys;
+  }
+
+  public List<String> getMissKeys() {
+    return missKeys;
+  }
+
+  private void writeObject(JsonGenerator generator, int level, int depth, int width, double keyHitRatio,
+      int stringLength) throws IOException {
+    generator.writeStartObject();
+    for (int i = 0; i < width; i++) {
+      // Unique suffix keeps keys distinct within one object
+      String suffix = i < 1 ? "" : String.valueOf(i);
+      // First field always nests so every payload reaches the requested depth
+      Kind kind = depth > 0 && i == 0 ? Kind.OBJECT : draw(memberKinds, level, depth > 0);
+
+      if (kind == Kind.STRING) {
+        String key = random.nextDouble() < keyHitRatio ? pick(hitKeys) : pick(missKeys);
+        generator.writeFieldName(key + suffix);
+      } else {
+        generator.writeFieldName(pick(missKeys) + suffix);
+      }
+      writeValue(generator, kind, level, depth, width, keyHitRatio, stringLength);
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeValue(JsonGenerator generator, Kind kind, int level, int depth, int width,
+      double keyHitRatio, int stringLength) throws IOException {
+    switch (kind) {
+      case OBJECT:
+        writeObject(generator, level + 1, depth - 1, width, keyHitRatio, stringLength);
+        break;
+      case ARRAY:
+        generator.writeStartArray();
+        for (int j = 0; j < width; j++) {
+          Kind item = draw(itemKinds, level, true);
+          writeValue(generator, item == Kind.ARRAY ? Kind.OBJECT : item, level, depth, width,
+              keyHitRatio, stringLength);
+        }
+        generator.writeEndArray();
+        break;
+      case NUMBER:
+        generator.writeNumber(random.nextInt(1_000_000));
+        break;
+      case BOOLEAN:
+        generator.writeBoolean(random.nextBoolean());
+        break;
+      case NULL:
+        generator.writeNull();
+        break;
+      default:
+        generator.writeString(randomString(stringLength));
+    }
+  }
+
+  /**
+   * Draws a value kind with the frequencies sampled at the level, or the deepest sampled
+   * level below it. Without containers only scalar kinds are drawn.
+   */
+  private Kind draw(List<int[]> table, int level, boolean containers) {
+    if (table.isEmpty()) {
+      return Kind.STRING;
+    }
+    int[] counts = table.get(Math.min(level, table.size() - 1));
+    int first = containers ? 0 : Kind.STRING.ordinal();
+    int total = 0;
+    for (int k = first; k < counts.length; k++) {
+      total += counts[k];
+    }
+    if (total == 0) {
+      return Kind.STRING;
+    }
+    int pick = random.nextInt(total);
+    for (int k = first; k < counts.length; k++) {
+      pick -= counts[k];
+      if (pick < 0) {
+        return Kind.values()[k];
+      }
+    }
+    return Kind.STRING;
+  }
+
+  private String pick(List<String> keys) {
+    return keys.get(random.nextInt(keys.size()));
+  }
+
+  private String randomString(int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+    return new String(chars);
+  }
+
+  private void collectShape(JsonNode node, int level, Set<String> names) {
+    if (node.isObject()) {
+      Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> entry = fields.next();
+        names.add(entry.getKey());
+        count(memberKinds, level, entry.getValue());
+        collectShape(entry.getValue(), level + 1, names);
+      }
+    } else if (node.isArray()) {
+      // items share the level of the array; their members are one level down
+      for (JsonNode item : node) {
+        count(itemKinds, Math.max(0, level - 1), item);
+        collectShape(item, level, names);
+      }
+    }
+  }
+
+  private static void count(List<int[]> table, int level, JsonNode value) {
+    while (table.size() <= level) {
+      table.add(new int[Kind.values().length]);
+    }
+    table.get(level)[kindOf(value).ordinal()]++;
+  }
+
+  private static Kind kindOf(JsonNode value) {
+    if (value.isObject()) {
+      return Kind.OBJECT;
+    } else if (value.isArray()) {
+      return Kind.ARRAY;
+    } else if (value.isNumber()) {
+      return Kind.NUMBER;
+    } else if (value.isBoolean()) {
+      return Kind.BOOLEAN;
+    } else if (value.isNull()) {
+      return Kind.NULL;
+    }
+    return Kind.STRING;
+  }
+}